@@ -0,0 +1,296 @@
+package com.example.cursach;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+/**
+ * Класс CostModel оценивает время генерации рисунка для каждого способа отрисовки.
+ * <p>
+ * Время отрисовки одной фигуры типа t при масштабе s: {@code k_t * (a_t + b_t * s)} для контура
+ * и {@code k_t * (a_t + c_t * s * s)} для заливки, так как площадь растеризации контура растет линейно
+ * с масштабом, а заливки - квадратично. Коэффициенты a, b, c определяются калибровкой при двух масштабах,
+ * поправка k уточняется по результатам каждой генерации. Оценки сохраняются в файл и используются
+ * при следующих запусках.
+ */
+class CostModel {
+    private static final Logger logger = LogManager.getLogger(CostModel.class);
+    /**
+     * Отрисовка непосредственно на холсте JavaFX в потоке интерфейса.
+     */
+    static final String FX = "fx";
+    /**
+     * Отрисовка во внеэкранное изображение Java2D в фоновом потоке с последующим копированием на холст.
+     */
+    static final String JAVA2D = "java2d";
+    static final String[] PATHS = {FX, JAVA2D};
+    /**
+     * Вес нового измерения при уточнении поправки.
+     */
+    private static final double LEARNING_RATE = 0.3;
+    /**
+     * Масштабы, при которых выполняется калибровка.
+     */
+    private static final double[] CALIBRATION_SCALES = {0.5, 2.0};
+    private static final int BASE = 0, STROKE = 1, FILL = 2;
+    private static final double[][] DEFAULT_COEFFICIENTS = {
+            {3_000, 2_000, 2_000}, {3_000, 2_000, 4_000}, {3_000, 2_000, 4_000},
+            {4_000, 2_000, 3_000}, {60_000, 20_000, 20_000}, {4_000, 2_000, 3_000}};
+    private static final double[] DEFAULT_FIXED_NANOS = {0, 5_000_000};
+
+    private final Path file;
+    private final Map<String, double[][]> coefficients = new LinkedHashMap<>();
+    private final Map<String, double[]> corrections = new LinkedHashMap<>();
+    private final Map<String, Double> fixedNanos = new LinkedHashMap<>();
+    /**
+     * Конструктор класса CostModel. Оценки инициализируются значениями по умолчанию.
+     * @param file Файл, в котором хранятся оценки между запусками.
+     */
+    CostModel(Path file) {
+        this.file = file;
+        for (int p = 0; p < PATHS.length; p++) {
+            double[][] c = new double[DEFAULT_COEFFICIENTS.length][];
+            for (int i = 0; i < c.length; i++) {
+                c[i] = DEFAULT_COEFFICIENTS[i].clone();
+            }
+            coefficients.put(PATHS[p], c);
+            double[] k = new double[DEFAULT_COEFFICIENTS.length];
+            Arrays.fill(k, 1.0);
+            corrections.put(PATHS[p], k);
+            fixedNanos.put(PATHS[p], DEFAULT_FIXED_NANOS[p]);
+        }
+    }
+    /**
+     * Загружает оценки, сохраненные при предыдущих запусках.
+     * @return true, если файл содержит полный набор коэффициентов.
+     */
+    synchronized boolean load() {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException ex) {
+            logger.warn("Не удалось прочитать оценки времени отрисовки: {}", ex.getMessage());
+            return false;
+        }
+        List<Figure> figureTypes = Figure.prototypes();
+        boolean complete = true;
+        try {
+            for (String path : PATHS) {
+                double[][] c = coefficients.get(path);
+                double[] k = corrections.get(path);
+                for (int i = 0; i < figureTypes.size(); i++) {
+                    String prefix = path + "." + figureTypes.get(i).getClass().getSimpleName();
+                    String[] values = {properties.getProperty(prefix + ".base"), properties.getProperty(prefix + ".stroke"),
+                            properties.getProperty(prefix + ".fill")};
+                    for (int j = 0; j < values.length; j++) {
+                        if (values[j] == null) {
+                            complete = false;
+                        } else {
+                            c[i][j] = Double.parseDouble(values[j]);
+                        }
+                    }
+                    String correction = properties.getProperty(prefix + ".correction");
+                    if (correction != null) {
+                        k[i] = Double.parseDouble(correction);
+                    }
+                }
+                String fixed = properties.getProperty(path + ".fixed");
+                if (fixed != null) {
+                    fixedNanos.put(path, Double.parseDouble(fixed));
+                }
+            }
+        } catch (NumberFormatException ex) {
+            logger.warn("Файл оценок времени отрисовки поврежден: {}", ex.getMessage());
+            return false;
+        }
+        return complete;
+    }
+    /**
+     * Сохраняет текущие оценки в файл.
+     */
+    void save() {
+        Properties properties = new Properties();
+        List<Figure> figureTypes = Figure.prototypes();
+        synchronized (this) {
+            for (String path : PATHS) {
+                double[][] c = coefficients.get(path);
+                double[] k = corrections.get(path);
+                for (int i = 0; i < figureTypes.size(); i++) {
+                    String prefix = path + "." + figureTypes.get(i).getClass().getSimpleName();
+                    properties.setProperty(prefix + ".base", Double.toString(c[i][BASE]));
+                    properties.setProperty(prefix + ".stroke", Double.toString(c[i][STROKE]));
+                    properties.setProperty(prefix + ".fill", Double.toString(c[i][FILL]));
+                    properties.setProperty(prefix + ".correction", Double.toString(k[i]));
+                }
+                properties.setProperty(path + ".fixed", Double.toString(fixedNanos.get(path)));
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Оценки времени отрисовки фигур, нс");
+        } catch (IOException ex) {
+            logger.warn("Не удалось сохранить оценки времени отрисовки: {}", ex.getMessage());
+        }
+    }
+    /**
+     * Калибрует коэффициенты одного типа фигуры для способа отрисовки: рисует фигуры при двух масштабах,
+     * с заливкой и без, и решает систему относительно a, b и c.
+     * Должен выполняться в потоке, которому разрешено рисовать на renderer.
+     * @param path Способ отрисовки.
+     * @param type Индекс типа фигуры (в порядке {@link Figure#NAMES}).
+     * @param renderer Renderer, на котором выполняется калибровка.
+     * @param flush Действие, завершающее растеризацию (для холста JavaFX - снимок холста).
+     * @param samples Количество фигур в одном замере.
+     */
+    void calibrate(String path, int type, Renderer renderer, Runnable flush, int samples) {
+        Class<? extends Figure> figureClass = Figure.prototypes().get(type).getClass();
+        double s1 = CALIBRATION_SCALES[0];
+        double s2 = CALIBRATION_SCALES[1];
+        try {
+            // Прогрев: первые вызовы включают загрузку классов и интерпретацию.
+            measure(figureClass, renderer, flush, samples, s1, true);
+            double baseline = measure(figureClass, renderer, flush, 0, s1, false);
+            double stroke1 = (measure(figureClass, renderer, flush, samples, s1, false) - baseline) / samples;
+            double stroke2 = (measure(figureClass, renderer, flush, samples, s2, false) - baseline) / samples;
+            double fill1 = (measure(figureClass, renderer, flush, samples, s1, true) - baseline) / samples;
+            double fill2 = (measure(figureClass, renderer, flush, samples, s2, true) - baseline) / samples;
+
+            double strokeSlope = Math.max(0, (stroke2 - stroke1) / (s2 - s1));
+            double fillSlope = Math.max(0, (fill2 - fill1) / (s2 * s2 - s1 * s1));
+            double base = Math.max(0, ((stroke1 - strokeSlope * s1) + (fill1 - fillSlope * s1 * s1)) / 2);
+            synchronized (this) {
+                coefficients.get(path)[type] = new double[]{base, strokeSlope, fillSlope};
+                corrections.get(path)[type] = 1.0;
+            }
+            logger.info("Калибровка {} {}: {}", path, Figure.NAMES[type], Arrays.toString(coefficients.get(path)[type]));
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Ошибка калибровки: {}", e.getMessage());
+        }
+    }
+
+    private static long measure(Class<? extends Figure> figureClass, Renderer renderer, Runnable flush, int samples,
+                                double scale, boolean fill) throws ReflectiveOperationException {
+        long start = System.nanoTime();
+        renderer.clearRect(0, 0, 900, 900);
+        for (int j = 0; j < samples; j++) {
+            figureClass.getDeclaredConstructor(double.class).newInstance(scale).draw(renderer, 450, 450, fill);
+        }
+        flush.run();
+        return System.nanoTime() - start;
+    }
+
+    private double figureNanos(String path, int type, double scale, boolean fill) {
+        double[] c = coefficients.get(path)[type];
+        double raster = fill ? c[FILL] * scale * scale : c[STROKE] * scale;
+        return corrections.get(path)[type] * (c[BASE] + raster);
+    }
+    /**
+     * Предсказывает время генерации.
+     * @param path Способ отрисовки.
+     * @param counts Количество фигур каждого типа (в порядке {@link Figure#NAMES}).
+     * @param scale Масштаб фигур (Масштаб / 100).
+     * @param fill Флаг заливки фигур.
+     * @return Ожидаемое время в наносекундах.
+     */
+    synchronized double predict(String path, int[] counts, double scale, boolean fill) {
+        double total = fixedNanos.get(path);
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i] * figureNanos(path, i, scale, fill);
+        }
+        return total;
+    }
+    /**
+     * Выбирает способ отрисовки с наименьшим ожидаемым временем.
+     * @param counts Количество фигур каждого типа (в порядке {@link Figure#NAMES}).
+     * @param scale Масштаб фигур (Масштаб / 100).
+     * @param fill Флаг заливки фигур.
+     * @return Способ отрисовки.
+     */
+    synchronized String fastestPath(int[] counts, double scale, boolean fill) {
+        String best = PATHS[0];
+        for (String path : PATHS) {
+            if (predict(path, counts, scale, fill) < predict(best, counts, scale, fill)) {
+                best = path;
+            }
+        }
+        return best;
+    }
+    /**
+     * Уточняет поправки по результатам генерации.
+     * Если время по типам известно, по нему уточняются поправки типов, а по остатку - постоянная часть.
+     * Иначе (холст JavaFX растеризует команды позже, в другом потоке) измерено лишь общее время: сначала
+     * постоянная часть уточняется так, как будто оценки фигур верны, затем поправки выбранных типов уточняются
+     * по оставшемуся времени с весом, равным квадрату доли фигур в предсказании. Так задержки, не зависящие
+     * от количества фигур, не переносятся на поправки при генерации небольшого числа фигур.
+     * @param path Способ отрисовки.
+     * @param counts Количество фигур каждого типа (в порядке {@link Figure#NAMES}).
+     * @param scale Масштаб фигур (Масштаб / 100).
+     * @param fill Флаг заливки фигур.
+     * @param drawNanos Измеренное время отрисовки фигур каждого типа или null.
+     * @param totalNanos Общее измеренное время генерации.
+     */
+    synchronized void learn(String path, int[] counts, double scale, boolean fill, long[] drawNanos, long totalNanos) {
+        double[] k = corrections.get(path);
+        double fixed = fixedNanos.get(path);
+        double predictedFigures = predict(path, counts, scale, fill) - fixed;
+        if (predictedFigures <= 0) {
+            return;
+        }
+        if (drawNanos == null) {
+            fixed += LEARNING_RATE * (Math.max(0, totalNanos - predictedFigures) - fixed);
+            fixedNanos.put(path, fixed);
+            double share = predictedFigures / (predictedFigures + fixed);
+            double ratio = Math.max(0, totalNanos - fixed) / predictedFigures;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    k[i] = clampCorrection(k[i] * (1 + LEARNING_RATE * share * share * (ratio - 1)));
+                }
+            }
+            return;
+        }
+        long measuredFigures = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            measuredFigures += drawNanos[i];
+            double ratio = drawNanos[i] / (counts[i] * figureNanos(path, i, scale, fill));
+            k[i] = clampCorrection(k[i] * (1 + LEARNING_RATE * (ratio - 1)));
+        }
+        double observedFixed = Math.max(0, totalNanos - measuredFigures);
+        fixedNanos.put(path, fixed + LEARNING_RATE * (observedFixed - fixed));
+    }
+
+    private static double clampCorrection(double k) {
+        return Math.max(0.05, Math.min(20, k));
+    }
+    /**
+     * Возвращает поправку для типа фигуры.
+     * @param path Способ отрисовки.
+     * @param type Индекс типа фигуры (в порядке {@link Figure#NAMES}).
+     * @return Поправка.
+     */
+    synchronized double correction(String path, int type) {
+        return corrections.get(path)[type];
+    }
+    /**
+     * Возвращает оценку постоянной части времени генерации.
+     * @param path Способ отрисовки.
+     * @return Постоянная часть в наносекундах.
+     */
+    synchronized double fixedNanos(String path) {
+        return fixedNanos.get(path);
+    }
+}
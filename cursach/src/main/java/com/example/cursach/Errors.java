@@ -23,18 +23,6 @@ class InvalidInputException extends Errors {
         super(message);
     }
 }
-/**
- * Класс TooManyFiguresException представляет собой исключение, возникающее при попытке сгенерировать слишком большое количество фигур.
- */
-class TooManyFiguresException extends Errors {
-    /**
-     * Конструктор класса TooManyFiguresException.
-     * @param message Сообщение об ошибке.
-     */
-    public TooManyFiguresException(String message) {
-        super(message);
-    }
-}
 /**
  * Класс NegativeInputException представляет собой исключение, возникающее при попытке использовать отрицательные значения в качестве входных данных.
  */
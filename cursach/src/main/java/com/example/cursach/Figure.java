@@ -1,14 +1,19 @@
 package com.example.cursach;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 /**
  * Абстрактный класс Figure, представляющий геометрическую фигуру.
  */
 
 abstract class Figure {
+    /**
+     * Названия типов фигур в том порядке, в котором они отображаются в интерфейсе и записываются в журнал.
+     */
+    static final String[] NAMES = {"Линия", "Окружность", "Квадрат", "Треугольник", "Парабола", "Трапеция"};
     protected final Random random = new Random();
     protected Color color;
     protected double scaleFactor;
@@ -22,12 +27,26 @@ abstract class Figure {
     }
     /**
      * Абстрактный метод для отрисовки фигуры.
-     * @param gc Контекст графики.
+     * @param renderer Renderer, через который выполняется отрисовка.
      * @param x Координата X центра фигуры.
      * @param y Координата Y центра фигуры.
      * @param fill Флаг, указывающий, нужно ли заполнять фигуру цветом.
      */
-    public abstract void draw(GraphicsContext gc, double x, double y, boolean fill);
+    public abstract void draw(Renderer renderer, double x, double y, boolean fill);
+    /**
+     * Создает по одному образцу каждого типа фигуры в порядке {@link #NAMES}.
+     * @return Список образцов фигур.
+     */
+    static List<Figure> prototypes() {
+        List<Figure> figureTypes = new ArrayList<>();
+        figureTypes.add(new Line(1.0));
+        figureTypes.add(new Circle(1.0));
+        figureTypes.add(new Rectangle(1.0));
+        figureTypes.add(new Triangle(1.0));
+        figureTypes.add(new Parabola(1.0));
+        figureTypes.add(new Trapezoid(1.0));
+        return figureTypes;
+    }
 }
 /**
  * Класс Line, представляющий отрезок линии.
@@ -47,19 +66,19 @@ class Line extends Figure {
     @Override
     /**
      * Рисует линию на холсте. Линия имеет случайную длину и угол наклона.
-     * @param gc Контекст графики для рисования.
+     * @param renderer Renderer для рисования.
      * @param x Координата X центра линии.
      * @param y Координата Y центра линии.
      * @param fill Флаг, указывающий, нужно ли заполнять фигуру (не используется для линии).
      */
-    public void draw(GraphicsContext gc, double x, double y, boolean fill) {
-        double originalLineWidth = gc.getLineWidth();
-        gc.setLineWidth(lineWidth);
+    public void draw(Renderer renderer, double x, double y, boolean fill) {
+        double originalLineWidth = renderer.getLineWidth();
+        renderer.setLineWidth(lineWidth);
         double angle = random.nextDouble() * 2 * Math.PI;
-        gc.setStroke(color);
-        gc.strokeLine(x - length / 2 * Math.cos(angle), y - length / 2 * Math.sin(angle),
+        renderer.setStroke(color);
+        renderer.strokeLine(x - length / 2 * Math.cos(angle), y - length / 2 * Math.sin(angle),
                 x + length / 2 * Math.cos(angle), y + length / 2 * Math.sin(angle));
-        gc.setLineWidth(originalLineWidth);
+        renderer.setLineWidth(originalLineWidth);
     }
 }
 /**
@@ -77,20 +96,20 @@ class Circle extends Figure {
     @Override
     /**
      * Рисует окружность на холсте. Радиус окружности выбирается случайным образом.
-     * @param gc Контекст графики для рисования.
+     * @param renderer Renderer для рисования.
      * @param x Координата X центра окружности.
      * @param y Координата Y центра окружности.
      * @param fill Флаг, указывающий, нужно ли заполнять окружность цветом.
      */
-    public void draw(GraphicsContext gc, double x, double y, boolean fill) {
+    public void draw(Renderer renderer, double x, double y, boolean fill) {
         double radius = (random.nextDouble() * 50 + 10) * scaleFactor;
-        gc.setStroke(color);
-        gc.setLineWidth(1);
+        renderer.setStroke(color);
+        renderer.setLineWidth(1);
         if (fill) {
-            gc.setFill(color);
-            gc.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
+            renderer.setFill(color);
+            renderer.fillOval(x - radius, y - radius, 2 * radius, 2 * radius);
         } else {
-            gc.strokeOval(x - radius, y - radius, 2 * radius, 2 * radius);
+            renderer.strokeOval(x - radius, y - radius, 2 * radius, 2 * radius);
         }
     }
 }
@@ -109,21 +128,21 @@ class Rectangle extends Figure {
     @Override
     /**
      * Рисует прямоугольник на холсте. Ширина и высота прямоугольника выбираются случайным образом.
-     * @param gc Контекст графики для рисования.
+     * @param renderer Renderer для рисования.
      * @param x Координата X центра прямоугольника.
      * @param y Координата Y центра прямоугольника.
      * @param fill Флаг, указывающий, нужно ли заполнять прямоугольник цветом.
      */
-    public void draw(GraphicsContext gc, double x, double y, boolean fill) {
+    public void draw(Renderer renderer, double x, double y, boolean fill) {
         double width = (random.nextDouble() * 50 + 20) * scaleFactor;
         double height = (random.nextDouble() * 50 + 20) * scaleFactor;
-        gc.setStroke(color);
-        gc.setLineWidth(1);
-        gc.setFill(color);
+        renderer.setStroke(color);
+        renderer.setLineWidth(1);
+        renderer.setFill(color);
         if (fill) {
-            gc.fillRect(x - width / 2, y - height / 2, width, height);
+            renderer.fillRect(x - width / 2, y - height / 2, width, height);
         } else {
-            gc.strokeRect(x - width / 2, y - height / 2, width, height);
+            renderer.strokeRect(x - width / 2, y - height / 2, width, height);
         }
     }
 }
@@ -142,12 +161,12 @@ class Triangle extends Figure {
     @Override
     /**
      * Рисует треугольник на холсте. Размер треугольника выбирается случайным образом.
-     * @param gc Контекст графики для рисования.
+     * @param renderer Renderer для рисования.
      * @param x Координата X центра треугольника.
      * @param y Координата Y центра треугольника.
      * @param fill Флаг, указывающий, нужно ли заполнять треугольник цветом.
      */
-    public void draw(GraphicsContext gc, double x, double y, boolean fill) {
+    public void draw(Renderer renderer, double x, double y, boolean fill) {
         double size = (random.nextDouble() * 40 + 20) * scaleFactor;
 
         // Calculate centroid
@@ -158,13 +177,13 @@ class Triangle extends Figure {
         double[] xPoints = {centerX, centerX - size / 2, centerX + size / 2};
         double[] yPoints = {centerY - size / 2, centerY + size / 2, centerY + size / 2}; //Flipped y-coordinates
 
-        gc.setStroke(color);
-        gc.setLineWidth(1);
-        gc.setFill(color);
+        renderer.setStroke(color);
+        renderer.setLineWidth(1);
+        renderer.setFill(color);
         if (fill) {
-            gc.fillPolygon(xPoints, yPoints, 3);
+            renderer.fillPolygon(xPoints, yPoints, 3);
         } else {
-            gc.strokePolygon(xPoints, yPoints, 3);
+            renderer.strokePolygon(xPoints, yPoints, 3);
         }
     }
 }
@@ -188,15 +207,15 @@ class Parabola extends Figure {
     @Override
     /**
      * Рисует параболу на холсте. Ширина параболы выбирается случайным образом.
-     * @param gc Контекст графики для рисования.
+     * @param renderer Renderer для рисования.
      * @param x Координата X центра параболы.
      * @param y Координата Y центра параболы.
      * @param fill Флаг, указывающий, нужно ли заполнять параболу (не используется для параболы).
      */
-    public void draw(GraphicsContext gc, double x, double y, boolean fill) {
-        double originalLineWidth = gc.getLineWidth();
-        gc.setLineWidth(lineWidth);
-        gc.setStroke(color);
+    public void draw(Renderer renderer, double x, double y, boolean fill) {
+        double originalLineWidth = renderer.getLineWidth();
+        renderer.setLineWidth(lineWidth);
+        renderer.setStroke(color);
         int numSegments = 50;
         double leftwardShift = width / 3;
         double[] xPoints = new double[numSegments + 1];
@@ -215,9 +234,9 @@ class Parabola extends Figure {
             yPoints[i] = y - verticalShift - width * heightMultiplier * (t - 0.5) * (t - 0.5);
         }
         for (int i = 0; i < numSegments; i++) {
-            gc.strokeLine(xPoints[i], yPoints[i], xPoints[i + 1], yPoints[i + 1]);
+            renderer.strokeLine(xPoints[i], yPoints[i], xPoints[i + 1], yPoints[i + 1]);
         }
-        gc.setLineWidth(originalLineWidth);
+        renderer.setLineWidth(originalLineWidth);
     }
 }
 /**
@@ -235,12 +254,12 @@ class Trapezoid extends Figure {
     @Override
     /**
      * Рисует трапецию на холсте. Размеры трапеции выбираются случайным образом.
-     * @param gc Контекст графики для рисования.
+     * @param renderer Renderer для рисования.
      * @param x Координата X центра трапеции.
      * @param y Координата Y центра трапеции.
      * @param fill Флаг, указывающий, нужно ли заполнять трапецию цветом.
      */
-    public void draw(GraphicsContext gc, double x, double y, boolean fill) {
+    public void draw(Renderer renderer, double x, double y, boolean fill) {
         double widthTop = (random.nextDouble() * 30 + 10) * scaleFactor;
         double widthBottom = (random.nextDouble() * 50 + 30) * scaleFactor;
         double height = (random.nextDouble() * 40 + 20) * scaleFactor;
@@ -254,13 +273,13 @@ class Trapezoid extends Figure {
         double[] xPoints = {centerX - widthTop / 2, centerX + widthTop / 2, centerX + widthBottom / 2, centerX - widthBottom / 2};
         double[] yPoints = {centerY - height / 2, centerY - height / 2, centerY + height / 2, centerY + height / 2};
 
-        gc.setStroke(color);
-        gc.setLineWidth(1);
-        gc.setFill(color);
+        renderer.setStroke(color);
+        renderer.setLineWidth(1);
+        renderer.setFill(color);
         if (fill) {
-            gc.fillPolygon(xPoints, yPoints, 4);
+            renderer.fillPolygon(xPoints, yPoints, 4);
         } else {
-            gc.strokePolygon(xPoints, yPoints, 4);
+            renderer.strokePolygon(xPoints, yPoints, 4);
         }
     }
 }
\ No newline at end of file
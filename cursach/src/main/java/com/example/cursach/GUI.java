@@ -1,6 +1,7 @@
 package com.example.cursach;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
@@ -15,10 +16,15 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
 /**
  * Главный класс графического интерфейса (GUI) для приложения генератора случайных фигур.
  */
@@ -26,11 +32,40 @@ public class GUI extends Application {
     private static final Logger logger = LogManager.getLogger(GUI.class);
     private Canvas canvas;
     private Generator generator;
+    /**
+     * Аргумент командной строки, включающий замер времени запуска.
+     */
+    private static final String STARTUP_BENCHMARK_FLAG = "--startup-benchmark";
+    /**
+     * Время (мс), по истечении которого замер времени запуска прерывается.
+     */
+    private static final long STARTUP_BENCHMARK_TIMEOUT_MILLIS = 120_000;
+    private boolean startupBenchmark;
+    private final CostModel costModel = new CostModel(Paths.get(System.getProperty("user.home"), ".cursach-cost.properties"));
+    /**
+     * Признак того, что оценки загружены или откалиброваны. До этого используются оценки по умолчанию.
+     */
+    private volatile boolean costModelReady;
+    /**
+     * Действие, выполняемое после переноса очередного рисунка на холст (используется замером времени запуска).
+     */
+    private Runnable pictureShownListener;
+    private boolean costModelStarted;
+    /**
+     * Действие, выполняемое по окончании инициализации модели стоимости (используется замером времени запуска).
+     */
+    private BiConsumer<Long, Boolean> costModelListener = (millis, calibrated) -> { };
     /**
      * Отображает диалоговое окно с сообщением об ошибке.
      * @param message Текст сообщения об ошибке.
      */
     private void showErrorAlert(String message) {
+        if (startupBenchmark) {
+            // Модальное окно остановило бы замер (и сборку архива CDS) до закрытия вручную.
+            System.err.println("Замер времени запуска прерван: " + message);
+            Platform.exit();
+            return;
+        }
         Alert alert = new Alert(AlertType.ERROR);
         alert.setTitle("Ошибка");
         alert.setHeaderText(null);
@@ -45,6 +80,63 @@ public class GUI extends Application {
     public void start(Stage primaryStage) {
         initializeUI(primaryStage);
     }
+    /**
+     * Сохраняет уточненные оценки времени отрисовки при закрытии приложения.
+     */
+    @Override
+    public void stop() {
+        if (costModelReady) {
+            costModel.save();
+        }
+    }
+    /**
+     * Загружает оценки времени отрисовки, полученные при предыдущих запусках,
+     * а если их нет - калибрует модель, рисуя небольшое количество фигур каждого типа.
+     * Выполняется в фоновом потоке после появления первого рисунка: загрузка AWT для отрисовки Java2D
+     * (около 120 мс) и калибровка не задерживают ни появление окна, ни первую генерацию,
+     * для которой используются оценки по умолчанию.
+     * @param onReady Действие, выполняемое в потоке JavaFX по окончании; получает время инициализации
+     *                в миллисекундах и признак того, что выполнялась калибровка.
+     */
+    private void initializeCostModel(BiConsumer<Long, Boolean> onReady) {
+        Thread worker = new Thread(() -> {
+            long start = System.nanoTime();
+            boolean calibrated = false;
+            if (costModel.load()) {
+                logger.info("Оценки времени отрисовки загружены.");
+            } else {
+                calibrated = true;
+                Java2DRenderer java2d = new Java2DRenderer((int) canvas.getWidth(), (int) canvas.getHeight());
+                // Холст JavaFX можно использовать только в потоке интерфейса, поэтому его калибровка
+                // выполняется там по одному типу фигур за раз, чтобы не блокировать окно надолго.
+                // Команды холста растеризуются только при отображении, поэтому каждый замер
+                // завершается снимком холста, который выполняет растеризацию немедленно.
+                Canvas calibrationCanvas = new Canvas(canvas.getWidth(), canvas.getHeight());
+                FxRenderer fx = new FxRenderer(calibrationCanvas.getGraphicsContext2D());
+                try {
+                    for (int type = 0; type < Figure.NAMES.length; type++) {
+                        costModel.calibrate(CostModel.JAVA2D, type, java2d, () -> { }, 50);
+                        int figureType = type;
+                        FutureTask<Void> fxCalibration = new FutureTask<>(() -> costModel.calibrate(CostModel.FX, figureType, fx,
+                                () -> calibrationCanvas.snapshot(null, null), 50), null);
+                        Platform.runLater(fxCalibration);
+                        fxCalibration.get();
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    logger.warn("Калибровка прервана: {}", ex.getMessage());
+                } finally {
+                    java2d.dispose();
+                }
+                costModel.save();
+            }
+            costModelReady = true;
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            boolean wasCalibrated = calibrated;
+            Platform.runLater(() -> onReady.accept(elapsed, wasCalibrated));
+        }, "calibration");
+        worker.setDaemon(true);
+        worker.start();
+    }
     /**
      * Инициализирует и отображает элементы пользовательского интерфейса.
      * @param primaryStage Основной Stage (окно) JavaFX приложения.
@@ -52,14 +144,8 @@ public class GUI extends Application {
     private void initializeUI(Stage primaryStage) {
         List<CheckBox> figureCheckboxes = new ArrayList<>();
         List<TextField> numFigureFields = new ArrayList<>();
-        String[] figureNames = {"Линия", "Окружность", "Квадрат", "Треугольник", "Парабола", "Трапеция"};
-        List<Figure> figureTypes = new ArrayList<>();
-        figureTypes.add(new Line(1.0));
-        figureTypes.add(new Circle(1.0));
-        figureTypes.add(new Rectangle(1.0));
-        figureTypes.add(new Triangle(1.0));
-        figureTypes.add(new Parabola(1.0));
-        figureTypes.add(new Trapezoid(1.0));
+        String[] figureNames = Figure.NAMES;
+        List<Figure> figureTypes = Figure.prototypes();
         VBox figureSelection = new VBox(10);
         for (int i = 0; i < figureNames.length; i++) {
             final String figureName = figureNames[i];
@@ -96,6 +182,8 @@ public class GUI extends Application {
         gridSizeSlider.setMajorTickUnit(10);
         gridSizeSlider.setSnapToTicks(true);
         gridSizeSlider.setBlockIncrement(10);
+        Label latencyTargetLabel = new Label("Целевое время, мс:");
+        TextField latencyTargetField = new TextField("500");
 
         CheckBox fillCheckBox = new CheckBox("Заливка фигур");
         fillCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
@@ -124,14 +212,17 @@ public class GUI extends Application {
         settingsGrid.add(densitySlider, 1, 4);
         settingsGrid.add(gridSizeLabel, 0, 5);
         settingsGrid.add(gridSizeSlider, 1, 5);
-        settingsGrid.add(figureSelection, 0, 6, 2, 1);
-        settingsGrid.add(generateButton, 0, 8, 2, 1);
-        settingsGrid.add(fillCheckBox, 0, 7, 2, 1);
+        settingsGrid.add(latencyTargetLabel, 0, 6);
+        settingsGrid.add(latencyTargetField, 1, 6);
+        settingsGrid.add(figureSelection, 0, 7, 2, 1);
+        settingsGrid.add(generateButton, 0, 9, 2, 1);
+        settingsGrid.add(fillCheckBox, 0, 8, 2, 1);
 
         minXField.textProperty().addListener((observable, oldValue, newValue) -> logParameterChange("Min X", oldValue, newValue));
         maxXField.textProperty().addListener((observable, oldValue, newValue) -> logParameterChange("Max X", oldValue, newValue));
         minYField.textProperty().addListener((observable, oldValue, newValue) -> logParameterChange("Min Y", oldValue, newValue));
         maxYField.textProperty().addListener((observable, oldValue, newValue) -> logParameterChange("Max Y", oldValue, newValue));
+        latencyTargetField.textProperty().addListener((observable, oldValue, newValue) -> logParameterChange("Целевое время", oldValue, newValue));
 
         for (int i = 0; i < numFigureFields.size(); i++) {
             int finalI = i;
@@ -142,7 +233,7 @@ public class GUI extends Application {
         gridSizeSlider.valueProperty().addListener((observable, oldValue, newValue) -> logParameterChange("Масштаб", oldValue.toString(), newValue.toString()));
 
         generateButton.setOnAction(e -> handleGenerateButton(figureCheckboxes, numFigureFields, figureNames, figureTypes,
-                minXField, maxXField, minYField, maxYField, densitySlider, gridSizeSlider, fillCheckBox, canvas));
+                minXField, maxXField, minYField, maxYField, densitySlider, gridSizeSlider, fillCheckBox, latencyTargetField, generateButton, canvas));
 
         HBox root = new HBox(10, settingsGrid, canvas);
         root.setPadding(new Insets(10));
@@ -150,8 +241,50 @@ public class GUI extends Application {
         Scene scene = new Scene(root, 1300, 900);
         primaryStage.setTitle("Генератор случайных рисунков");
         primaryStage.setScene(scene);
+        if (getParameters().getRaw().contains(STARTUP_BENCHMARK_FLAG)) {
+            runStartupBenchmark(generateButton);
+        }
         primaryStage.show();
     }
+    /**
+     * Замеряет время от запуска JVM до первого кадра окна, до появления первого рисунка на экране
+     * и время инициализации модели стоимости, после чего закрывает приложение.
+     * Используется также как тренировочный запуск для создания архива CDS, поэтому диалоговые окна
+     * не показываются, а при ошибке или по истечении времени ожидания приложение закрывается.
+     * @param generateButton Кнопка генерации.
+     */
+    private void runStartupBenchmark(Button generateButton) {
+        startupBenchmark = true;
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        Thread timeout = new Thread(() -> {
+            try {
+                Thread.sleep(STARTUP_BENCHMARK_TIMEOUT_MILLIS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            Platform.runLater(() -> showErrorAlert("превышено время ожидания " + STARTUP_BENCHMARK_TIMEOUT_MILLIS + " мс"));
+        }, "benchmark-timeout");
+        timeout.setDaemon(true);
+        timeout.start();
+        afterFrameRendered(() -> {
+            report("Время до первого кадра", System.currentTimeMillis() - jvmStart);
+            pictureShownListener = () -> report("Время до первого рисунка", System.currentTimeMillis() - jvmStart);
+            costModelListener = (millis, calibrated) -> {
+                report(calibrated ? "Калибровка модели стоимости" : "Загрузка оценок времени отрисовки", millis);
+                Platform.exit();
+            };
+            Platform.runLater(generateButton::fire);
+        });
+    }
+    /**
+     * Выводит результат замера времени запуска в журнал и в стандартный вывод.
+     * @param name Название замера.
+     * @param millis Время в миллисекундах.
+     */
+    private void report(String name, long millis) {
+        logger.info("{}: {} мс", name, millis);
+        System.out.println(name + ": " + millis + " мс");
+    }
     /**
      * Обрабатывает событие нажатия кнопки "Генерация", выполняя генерацию и отрисовку фигур.
      * @param figureCheckboxes Список флажков выбора фигур.
@@ -165,16 +298,20 @@ public class GUI extends Application {
      * @param densitySlider Ползунок для настройки плотности фигур.
      * @param gridSizeSlider Ползунок для настройки размера сетки.
      * @param fillCheckBox Флажок для выбора заливки фигур.
+     * @param latencyTargetField Поле ввода целевого времени генерации.
+     * @param generateButton Кнопка генерации (блокируется на время фоновой отрисовки).
      * @param canvas Холст для отрисовки.
      */
     private void handleGenerateButton(List<CheckBox> figureCheckboxes, List<TextField> numFigureFields, String[] figureNames, List<Figure> figureTypes,
-                                      TextField minXField, TextField maxXField, TextField minYField, TextField maxYField, Slider densitySlider, Slider gridSizeSlider, CheckBox fillCheckBox, Canvas canvas) {
+                                      TextField minXField, TextField maxXField, TextField minYField, TextField maxYField, Slider densitySlider, Slider gridSizeSlider, CheckBox fillCheckBox,
+                                      TextField latencyTargetField, Button generateButton, Canvas canvas) {
         logger.info("Кнопка генерации нажата");
         try {
             double minX = parseDoubleAndValidate(minXField.getText(), "Min X");
             double maxX = parseDoubleAndValidate(maxXField.getText(), "Max X");
             double minY = parseDoubleAndValidate(minYField.getText(), "Min Y");
             double maxY = parseDoubleAndValidate(maxYField.getText(), "Max Y");
+            double latencyTarget = parseLatencyTarget(latencyTargetField.getText());
             double density = 1.5 - densitySlider.getValue();
             double gridSize = gridSizeSlider.getValue();
             boolean fillFigures = fillCheckBox.isSelected();
@@ -192,6 +329,8 @@ public class GUI extends Application {
             logger.info("Выбранные фигуры:");
             List<Figure> activeFigures = new ArrayList<>();
             List<Integer> numFiguresList = new ArrayList<>();
+            List<Integer> activeIndices = new ArrayList<>();
+            int[] requestedCounts = new int[figureTypes.size()];
             int totalFigures = 0;
             for (int i = 0; i < figureCheckboxes.size(); i++) {
                 if (figureCheckboxes.get(i).isSelected()) {
@@ -202,14 +341,13 @@ public class GUI extends Application {
                         if (numFiguresForThisType < 0) {
                             throw new NegativeInputException("Количество фигур должно быть неотрицательным.");
                         }
-                        if (numFiguresForThisType > 5000) {
-                            throw new TooManyFiguresException("Количество фигур должно быть не больше 5000.");
-                        }
                     } catch (NumberFormatException ex) {
                         throw new InvalidInputException("Неверный ввод (используйте целочисленные значения)");
                     }
                     activeFigures.add(figureTypes.get(i));
                     numFiguresList.add(numFiguresForThisType);
+                    activeIndices.add(i);
+                    requestedCounts[i] = numFiguresForThisType;
                     totalFigures += numFiguresForThisType;
                     logger.info("Количество {}: {} ", figureNames[i], numFiguresForThisType);
                 }
@@ -225,6 +363,26 @@ public class GUI extends Application {
                 throw new InvalidInputException("Минимальное значение не может быть больше или равно максимальному");
             }
 
+            double scale = gridSize / 100;
+            String renderPath = costModel.fastestPath(requestedCounts, scale, fillFigures);
+            double predictedMillis = costModel.predict(renderPath, requestedCounts, scale, fillFigures) / 1e6;
+            logger.info("Ожидаемое время генерации: {} мс ({})", String.format("%.1f", predictedMillis), renderPath);
+            if (predictedMillis > latencyTarget && renderPath.equals(CostModel.FX)) {
+                // Выбор делается ради отзывчивости, а не скорости: даже самый быстрый способ не укладывается
+                // в целевое время, а отрисовка на холсте JavaFX заняла бы поток интерфейса на все это время.
+                // Фоновая отрисовка может оказаться медленнее, но окно при этом не зависает.
+                renderPath = CostModel.JAVA2D;
+                predictedMillis = costModel.predict(renderPath, requestedCounts, scale, fillFigures) / 1e6;
+                logger.info("Выбрана фоновая отрисовка, ожидаемое время генерации: {} мс ({})", String.format("%.1f", predictedMillis), renderPath);
+            }
+            if (predictedMillis > latencyTarget) {
+                logger.warn("Ожидаемое время генерации {} мс превышает целевое {} мс", String.format("%.1f", predictedMillis), latencyTarget);
+                if (!confirmSlowGeneration(predictedMillis, latencyTarget)) {
+                    logger.info("Генерация отменена пользователем.");
+                    return;
+                }
+            }
+
             generator = new Generator(minX, maxX, correctedMinY, correctedMaxY, numFigures, density, gridSize, activeFigures, fillFigures);
             GraphicsContext gc = canvas.getGraphicsContext2D();
             gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
@@ -232,10 +390,27 @@ public class GUI extends Application {
             gc.setFill(Color.rgb(0, 255, 0, 0.1));
             gc.fillRect(minX, correctedMinY, maxX - minX, correctedMaxY - correctedMinY);
 
-            generator.draw(gc);
-            logger.info("Фигуры сгенерированы.");
+            if (renderPath.equals(CostModel.JAVA2D)) {
+                drawInBackground(generator, gc, requestedCounts, activeIndices, scale, fillFigures, generateButton);
+            } else {
+                long start = System.nanoTime();
+                generator.draw(gc);
+                logger.info("Фигуры сгенерированы.");
+                // Время по типам здесь - лишь запись команд в буфер холста; растеризация выполняется
+                // позже, поэтому модель уточняется по времени до отображения кадра. Из него вычитается
+                // время таких же двух пульсов без изменений на холсте (ожидание кадров), чтобы оценка была
+                // сравнима с фоновой отрисовкой, время которой измеряется до переноса изображения на холст.
+                afterFrameRendered(() -> {
+                    long rendered = System.nanoTime();
+                    notifyPictureShown();
+                    afterFrameRendered(() -> {
+                        long frameNanos = System.nanoTime() - rendered;
+                        learnDrawTime(CostModel.FX, null, requestedCounts, scale, fillFigures, Math.max(0, rendered - start - frameNanos));
+                    });
+                });
+            }
 
-        } catch (TooManyFiguresException | InvalidInputException ex) {
+        } catch (InvalidInputException ex) {
             logger.error("Ошибка генерации фигур");
             showErrorAlert(ex.getMessage());
         } catch (Exception ex) {
@@ -243,6 +418,116 @@ public class GUI extends Application {
             showErrorAlert("Ошибка: " + ex.getMessage());
         }
     }
+    /**
+     * Рисует фигуры во внеэкранное изображение в фоновом потоке и затем переносит его на холст.
+     * @param generator Генератор фигур.
+     * @param gc Контекст графики холста.
+     * @param requestedCounts Количество фигур каждого типа.
+     * @param activeIndices Индексы выбранных типов фигур.
+     * @param scale Масштаб фигур.
+     * @param fillFigures Флаг заливки фигур.
+     * @param generateButton Кнопка генерации, блокируемая до окончания отрисовки.
+     */
+    private void drawInBackground(Generator generator, GraphicsContext gc, int[] requestedCounts, List<Integer> activeIndices,
+                                  double scale, boolean fillFigures, Button generateButton) {
+        generateButton.setDisable(true);
+        Thread worker = new Thread(() -> {
+            long start = System.nanoTime();
+            Java2DRenderer renderer = new Java2DRenderer((int) canvas.getWidth(), (int) canvas.getHeight());
+            try {
+                generator.draw(renderer);
+                Platform.runLater(() -> {
+                    gc.drawImage(renderer.toFxImage(), 0, 0);
+                    renderer.dispose();
+                    afterFrameRendered(this::notifyPictureShown);
+                    long[] activeNanos = generator.getDrawNanos();
+                    long[] drawNanos = new long[requestedCounts.length];
+                    for (int i = 0; i < activeIndices.size(); i++) {
+                        drawNanos[activeIndices.get(i)] = activeNanos[i];
+                    }
+                    learnDrawTime(CostModel.JAVA2D, drawNanos, requestedCounts, scale, fillFigures, System.nanoTime() - start);
+                    logger.info("Фигуры сгенерированы.");
+                    generateButton.setDisable(false);
+                });
+            } catch (Exception ex) {
+                renderer.dispose();
+                logger.error("Ошибка: " + ex.getMessage());
+                Platform.runLater(() -> {
+                    showErrorAlert("Ошибка: " + ex.getMessage());
+                    generateButton.setDisable(false);
+                });
+            }
+        }, "generator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    /**
+     * Сообщает о появлении рисунка на экране. После первого рисунка начинается инициализация модели стоимости.
+     */
+    private void notifyPictureShown() {
+        if (pictureShownListener != null) {
+            Runnable listener = pictureShownListener;
+            pictureShownListener = null;
+            listener.run();
+        }
+        if (!costModelStarted) {
+            costModelStarted = true;
+            initializeCostModel(costModelListener);
+        }
+    }
+    /**
+     * Выполняет действие после того, как кадр с текущим содержимым холста будет отрисован.
+     * Следующий пульс после кадра с рисунком начинается только по окончании его растеризации,
+     * поэтому действие выполняется на втором пульсе.
+     * @param action Действие.
+     */
+    private void afterFrameRendered(Runnable action) {
+        Scene scene = canvas.getScene();
+        scene.addPostLayoutPulseListener(new Runnable() {
+            private int pulses;
+
+            @Override
+            public void run() {
+                if (++pulses < 2) {
+                    Platform.requestNextPulse();
+                    return;
+                }
+                scene.removePostLayoutPulseListener(this);
+                action.run();
+            }
+        });
+        Platform.requestNextPulse();
+    }
+    /**
+     * Уточняет модель стоимости по измеренному времени генерации. Модель сохраняется при закрытии приложения.
+     * @param renderPath Способ отрисовки.
+     * @param drawNanos Время отрисовки фигур каждого типа или null, если оно неизвестно.
+     * @param requestedCounts Количество фигур каждого типа.
+     * @param scale Масштаб фигур.
+     * @param fillFigures Флаг заливки фигур.
+     * @param totalNanos Общее время генерации в наносекундах.
+     */
+    private void learnDrawTime(String renderPath, long[] drawNanos, int[] requestedCounts, double scale, boolean fillFigures, long totalNanos) {
+        costModel.learn(renderPath, requestedCounts, scale, fillFigures, drawNanos, totalNanos);
+        logger.info("Время генерации: {} мс ({})", String.format("%.1f", totalNanos / 1e6), renderPath);
+    }
+    /**
+     * Предупреждает, что генерация займет больше целевого времени, и спрашивает, продолжать ли.
+     * @param predictedMillis Ожидаемое время генерации в миллисекундах.
+     * @param latencyTarget Целевое время генерации в миллисекундах.
+     * @return true, если пользователь согласился продолжить.
+     */
+    private boolean confirmSlowGeneration(double predictedMillis, double latencyTarget) {
+        if (startupBenchmark) {
+            return true;
+        }
+        Alert alert = new Alert(AlertType.CONFIRMATION);
+        alert.setTitle("Предупреждение");
+        alert.setHeaderText(null);
+        alert.setContentText(String.format("Ожидаемое время генерации (%.0f мс) превышает целевое (%.0f мс). "
+                + "Рисунок будет построен в фоновом режиме. Продолжить?", predictedMillis, latencyTarget));
+        return alert.showAndWait().filter(button -> button == ButtonType.OK).isPresent();
+    }
     /**
      * Регистрирует событие изменения параметра.
      * @param parameterName Имя параметра.
@@ -276,6 +561,23 @@ public class GUI extends Application {
             throw new InvalidInputException(fieldName + " значение должно быть числом.");
         }
     }
+    /**
+     * Преобразует строку в целевое время генерации и проверяет корректность ввода.
+     * @param text Строка для преобразования.
+     * @return Целевое время генерации в миллисекундах.
+     * @throws InvalidInputException Если ввод некорректен.
+     */
+    private double parseLatencyTarget(String text) throws InvalidInputException {
+        try {
+            double value = Double.parseDouble(text.trim());
+            if (value <= 0) {
+                throw new InvalidInputException("Целевое время должно быть положительным числом.");
+            }
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new InvalidInputException("Целевое время должно быть числом.");
+        }
+    }
     /**
      * Рисует сетку на холсте.
      * @param gc Контекст графики для рисования.
@@ -20,6 +20,7 @@ public class Generator {
     private final double gridSpacing;
     private final List<Figure> figureTypes;
     private final boolean fillFigures;
+    private long[] drawNanos = new long[0];
 
     /**
      * Конструктор класса Generator.
@@ -49,8 +50,16 @@ public class Generator {
      * @param gc Контекст графики.
      */
     public void draw(GraphicsContext gc) {
+        draw(new FxRenderer(gc));
+    }
+    /**
+     * Метод для отрисовки фигур через произвольный Renderer.
+     * @param renderer Renderer, через который выполняется отрисовка.
+     */
+    public void draw(Renderer renderer) {
         logger.info("Начало генерации фигур.");
         int[] figuresDrawn = new int[numFigures.length];
+        drawNanos = new long[numFigures.length];
         int totalFiguresToDraw = Arrays.stream(numFigures).sum();
         int figuresDrawnCount = 0;
 
@@ -72,19 +81,28 @@ public class Generator {
             y = Math.max(minY, Math.min(maxY, y));
 
             double scaleFactor = gridSpacing / 100;
-            double originalLineWidth = gc.getLineWidth();
+            double originalLineWidth = renderer.getLineWidth();
+            long start = System.nanoTime();
             try {
                 Figure figure = figureTypes.get(figureTypeIndex).getClass().getDeclaredConstructor(double.class).newInstance(scaleFactor);
-                figure.draw(gc, x, y, fillFigures);
+                figure.draw(renderer, x, y, fillFigures);
                 figuresDrawn[figureTypeIndex]++;
             } catch (Exception e) {
                 e.printStackTrace();
             }
-            gc.setLineWidth(originalLineWidth);
+            drawNanos[figureTypeIndex] += System.nanoTime() - start;
+            renderer.setLineWidth(originalLineWidth);
             figuresDrawnCount++;
         }
         logger.info("Конец генерации фигур.");
     }
+    /**
+     * Возвращает время, затраченное на создание и отрисовку фигур каждого типа при последнем вызове draw.
+     * @return Массив времени в наносекундах, индексы соответствуют списку figureTypes.
+     */
+    public long[] getDrawNanos() {
+        return drawNanos.clone();
+    }
     /**
      * Выбирает случайный тип фигуры из доступных, учитывая количество уже нарисованных фигур каждого типа.
      *
@@ -1,13 +1,20 @@
 package com.example.cursach;
+
+import java.util.Arrays;
+
 /**
  * Точка входа в приложение. Запускает приложение.
  */
 public class Main {
     /**
-     * Запускает приложение.
+     * Запускает приложение. С аргументом --replay запускает воспроизведение журнала (см. {@link Replay}).
      * @param args Аргументы командной строки.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--replay")) {
+            Replay.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         GUI.main(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,556 @@
+package com.example.cursach;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+/**
+ * Интерфейс Renderer описывает набор операций рисования, через который фигуры отрисовывают себя.
+ * Позволяет отделить фигуры от конкретной графической библиотеки.
+ */
+public interface Renderer {
+    /**
+     * Устанавливает цвет линий.
+     * @param color Цвет линий.
+     */
+    void setStroke(Color color);
+    /**
+     * Устанавливает цвет заливки.
+     * @param color Цвет заливки.
+     */
+    void setFill(Color color);
+    /**
+     * Устанавливает толщину линий.
+     * @param lineWidth Толщина линий.
+     */
+    void setLineWidth(double lineWidth);
+    /**
+     * Возвращает текущую толщину линий.
+     * @return Толщина линий.
+     */
+    double getLineWidth();
+    /**
+     * Рисует отрезок.
+     * @param x1 Координата X начала отрезка.
+     * @param y1 Координата Y начала отрезка.
+     * @param x2 Координата X конца отрезка.
+     * @param y2 Координата Y конца отрезка.
+     */
+    void strokeLine(double x1, double y1, double x2, double y2);
+    /**
+     * Рисует контур эллипса, вписанного в прямоугольник.
+     * @param x Координата X левого верхнего угла.
+     * @param y Координата Y левого верхнего угла.
+     * @param w Ширина.
+     * @param h Высота.
+     */
+    void strokeOval(double x, double y, double w, double h);
+    /**
+     * Рисует закрашенный эллипс, вписанный в прямоугольник.
+     * @param x Координата X левого верхнего угла.
+     * @param y Координата Y левого верхнего угла.
+     * @param w Ширина.
+     * @param h Высота.
+     */
+    void fillOval(double x, double y, double w, double h);
+    /**
+     * Рисует контур прямоугольника.
+     * @param x Координата X левого верхнего угла.
+     * @param y Координата Y левого верхнего угла.
+     * @param w Ширина.
+     * @param h Высота.
+     */
+    void strokeRect(double x, double y, double w, double h);
+    /**
+     * Рисует закрашенный прямоугольник.
+     * @param x Координата X левого верхнего угла.
+     * @param y Координата Y левого верхнего угла.
+     * @param w Ширина.
+     * @param h Высота.
+     */
+    void fillRect(double x, double y, double w, double h);
+    /**
+     * Рисует контур многоугольника.
+     * @param xPoints Координаты X вершин.
+     * @param yPoints Координаты Y вершин.
+     * @param nPoints Количество вершин.
+     */
+    void strokePolygon(double[] xPoints, double[] yPoints, int nPoints);
+    /**
+     * Рисует закрашенный многоугольник.
+     * @param xPoints Координаты X вершин.
+     * @param yPoints Координаты Y вершин.
+     * @param nPoints Количество вершин.
+     */
+    void fillPolygon(double[] xPoints, double[] yPoints, int nPoints);
+    /**
+     * Очищает прямоугольную область.
+     * @param x Координата X левого верхнего угла.
+     * @param y Координата Y левого верхнего угла.
+     * @param w Ширина.
+     * @param h Высота.
+     */
+    void clearRect(double x, double y, double w, double h);
+}
+/**
+ * Класс FxRenderer рисует на холсте JavaFX через GraphicsContext.
+ */
+class FxRenderer implements Renderer {
+    private final GraphicsContext gc;
+    /**
+     * Конструктор класса FxRenderer.
+     * @param gc Контекст графики холста.
+     */
+    public FxRenderer(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    @Override
+    public void setStroke(Color color) {
+        gc.setStroke(color);
+    }
+
+    @Override
+    public void setFill(Color color) {
+        gc.setFill(color);
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        gc.setLineWidth(lineWidth);
+    }
+
+    @Override
+    public double getLineWidth() {
+        return gc.getLineWidth();
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        gc.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        gc.strokeOval(x, y, w, h);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        gc.fillOval(x, y, w, h);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        gc.strokeRect(x, y, w, h);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        gc.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        gc.strokePolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        gc.fillPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        gc.clearRect(x, y, w, h);
+    }
+}
+/**
+ * Класс Java2DRenderer рисует во внеэкранное изображение средствами Java2D.
+ * Не требует запущенного JavaFX.
+ */
+class Java2DRenderer implements Renderer {
+    private final BufferedImage image;
+    private final Graphics2D g;
+    private java.awt.Color stroke = java.awt.Color.BLACK;
+    private java.awt.Color fill = java.awt.Color.WHITE;
+    private double lineWidth = 1;
+    /**
+     * Конструктор класса Java2DRenderer.
+     * @param width Ширина изображения.
+     * @param height Высота изображения.
+     */
+    public Java2DRenderer(int width, int height) {
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setStroke(new BasicStroke((float) lineWidth));
+    }
+    /**
+     * Возвращает изображение, в которое ведется отрисовка.
+     * @return Внеэкранное изображение.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+    /**
+     * Копирует изображение в WritableImage, который можно нарисовать на холсте JavaFX.
+     * Должен вызываться после завершения отрисовки.
+     * @return Изображение JavaFX.
+     */
+    public WritableImage toFxImage() {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        WritableImage fxImage = new WritableImage(width, height);
+        fxImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return fxImage;
+    }
+    /**
+     * Освобождает ресурсы графического контекста.
+     */
+    public void dispose() {
+        g.dispose();
+    }
+
+    private static java.awt.Color toAwt(Color color) {
+        return new java.awt.Color((float) color.getRed(), (float) color.getGreen(), (float) color.getBlue(), (float) color.getOpacity());
+    }
+
+    @Override
+    public void setStroke(Color color) {
+        stroke = toAwt(color);
+    }
+
+    @Override
+    public void setFill(Color color) {
+        fill = toAwt(color);
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        if (this.lineWidth != lineWidth) {
+            this.lineWidth = lineWidth;
+            g.setStroke(new BasicStroke((float) lineWidth));
+        }
+    }
+
+    @Override
+    public double getLineWidth() {
+        return lineWidth;
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        g.setColor(stroke);
+        g.draw(new Line2D.Double(x1, y1, x2, y2));
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        g.setColor(stroke);
+        g.draw(new Ellipse2D.Double(x, y, w, h));
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        g.setColor(fill);
+        g.fill(new Ellipse2D.Double(x, y, w, h));
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        g.setColor(stroke);
+        g.draw(new Rectangle2D.Double(x, y, w, h));
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        g.setColor(fill);
+        g.fill(new Rectangle2D.Double(x, y, w, h));
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        g.setColor(stroke);
+        g.draw(polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        g.setColor(fill);
+        g.fill(polygon(xPoints, yPoints, nPoints));
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        // Graphics2D.clearRect заливает цветом фона, а холст JavaFX очищается до прозрачного.
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.Clear);
+        g.fill(new Rectangle2D.Double(x, y, w, h));
+        g.setComposite(composite);
+    }
+
+    private static Path2D polygon(double[] xPoints, double[] yPoints, int nPoints) {
+        Path2D.Double path = new Path2D.Double();
+        path.moveTo(xPoints[0], yPoints[0]);
+        for (int i = 1; i < nPoints; i++) {
+            path.lineTo(xPoints[i], yPoints[i]);
+        }
+        path.closePath();
+        return path;
+    }
+}
+/**
+ * Класс CountingRenderer ничего не рисует, а только подсчитывает вызовы.
+ * Используется для измерения количества операций рисования и смен состояния без запуска JavaFX.
+ */
+class CountingRenderer implements Renderer {
+    private double lineWidth = 1;
+    private long drawCalls;
+    private long stateChanges;
+    /**
+     * Возвращает количество операций рисования.
+     * @return Количество операций рисования.
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+    /**
+     * Возвращает количество смен состояния (цвета линий, цвета заливки, толщины линий).
+     * @return Количество смен состояния.
+     */
+    public long getStateChanges() {
+        return stateChanges;
+    }
+    /**
+     * Сбрасывает счетчики.
+     */
+    public void reset() {
+        drawCalls = 0;
+        stateChanges = 0;
+    }
+
+    @Override
+    public void setStroke(Color color) {
+        stateChanges++;
+    }
+
+    @Override
+    public void setFill(Color color) {
+        stateChanges++;
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        this.lineWidth = lineWidth;
+        stateChanges++;
+    }
+
+    @Override
+    public double getLineWidth() {
+        return lineWidth;
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        drawCalls++;
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        drawCalls++;
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+}
+/**
+ * Класс RecordingRenderer записывает все вызовы в список команд, который можно затем
+ * проверить или воспроизвести на другом Renderer.
+ */
+class RecordingRenderer implements Renderer {
+    /**
+     * Одна записанная команда рисования.
+     */
+    static class Command {
+        final String op;
+        final double[] args;
+        final Color color;
+
+        Command(String op, double[] args, Color color) {
+            this.op = op;
+            this.args = args;
+            this.color = color;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(op).append('(');
+            if (color != null) {
+                sb.append(color);
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0 || color != null) {
+                    sb.append(", ");
+                }
+                sb.append(args[i]);
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    private static final double[] NO_ARGS = new double[0];
+    private final List<Command> commands = new ArrayList<>();
+    private double lineWidth = 1;
+    /**
+     * Возвращает записанные команды.
+     * @return Неизменяемый список команд.
+     */
+    public List<Command> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+    /**
+     * Воспроизводит записанные команды на другом Renderer.
+     * @param target Renderer, на котором воспроизводятся команды.
+     */
+    public void replay(Renderer target) {
+        for (Command c : commands) {
+            double[] a = c.args;
+            switch (c.op) {
+                case "setStroke" -> target.setStroke(c.color);
+                case "setFill" -> target.setFill(c.color);
+                case "setLineWidth" -> target.setLineWidth(a[0]);
+                case "strokeLine" -> target.strokeLine(a[0], a[1], a[2], a[3]);
+                case "strokeOval" -> target.strokeOval(a[0], a[1], a[2], a[3]);
+                case "fillOval" -> target.fillOval(a[0], a[1], a[2], a[3]);
+                case "strokeRect" -> target.strokeRect(a[0], a[1], a[2], a[3]);
+                case "fillRect" -> target.fillRect(a[0], a[1], a[2], a[3]);
+                case "clearRect" -> target.clearRect(a[0], a[1], a[2], a[3]);
+                case "strokePolygon", "fillPolygon" -> {
+                    int n = a.length / 2;
+                    double[] xPoints = new double[n];
+                    double[] yPoints = new double[n];
+                    System.arraycopy(a, 0, xPoints, 0, n);
+                    System.arraycopy(a, n, yPoints, 0, n);
+                    if (c.op.equals("fillPolygon")) {
+                        target.fillPolygon(xPoints, yPoints, n);
+                    } else {
+                        target.strokePolygon(xPoints, yPoints, n);
+                    }
+                }
+                default -> throw new IllegalStateException("Неизвестная команда: " + c.op);
+            }
+        }
+    }
+
+    private static double[] points(double[] xPoints, double[] yPoints, int nPoints) {
+        double[] a = new double[nPoints * 2];
+        System.arraycopy(xPoints, 0, a, 0, nPoints);
+        System.arraycopy(yPoints, 0, a, nPoints, nPoints);
+        return a;
+    }
+
+    @Override
+    public void setStroke(Color color) {
+        commands.add(new Command("setStroke", NO_ARGS, color));
+    }
+
+    @Override
+    public void setFill(Color color) {
+        commands.add(new Command("setFill", NO_ARGS, color));
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        this.lineWidth = lineWidth;
+        commands.add(new Command("setLineWidth", new double[]{lineWidth}, null));
+    }
+
+    @Override
+    public double getLineWidth() {
+        return lineWidth;
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        commands.add(new Command("strokeLine", new double[]{x1, y1, x2, y2}, null));
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        commands.add(new Command("strokeOval", new double[]{x, y, w, h}, null));
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        commands.add(new Command("fillOval", new double[]{x, y, w, h}, null));
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        commands.add(new Command("strokeRect", new double[]{x, y, w, h}, null));
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        commands.add(new Command("fillRect", new double[]{x, y, w, h}, null));
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        commands.add(new Command("strokePolygon", points(xPoints, yPoints, nPoints), null));
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        commands.add(new Command("fillPolygon", points(xPoints, yPoints, nPoints), null));
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        commands.add(new Command("clearRect", new double[]{x, y, w, h}, null));
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.cursach;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+/**
+ * Класс Replay воспроизводит сеансы генерации, записанные в журнале app.log, без графического интерфейса.
+ * Каждый сеанс сначала прогревается, затем повторяется заданное число раз, после чего выводятся перцентили времени генерации.
+ * <p>
+ * Запуск: {@code Replay [журнал] [--speed N] [--concurrency N] [--warmup N] [--iterations N] [--renderer java2d|counting] [--fill]}
+ */
+public class Replay {
+    static {
+        // Генератор пишет в журнал о каждом запуске; при воспроизведении это лишь засоряет app.log.
+        // Конфигурацию нужно выбрать до первого обращения к LogManager.
+        if (System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", "log4j2-replay.xml");
+        }
+    }
+    private static final Logger logger = LogManager.getLogger(Replay.class);
+    private static final String USAGE = "Использование: Replay [журнал] [--speed N] [--concurrency N] [--warmup N] "
+            + "[--iterations N] [--renderer java2d|counting] [--fill]";
+    private static final double CANVAS_SIZE = 900;
+    private static final String START_MARKER = "Кнопка генерации нажата";
+    private static final String END_MARKER = "Фигуры сгенерированы.";
+    private static final String COUNT_PREFIX = "Количество ";
+
+    /**
+     * Параметры одного сеанса генерации, восстановленные из журнала.
+     */
+    static class Session {
+        LocalTime time;
+        double minX, maxX, minY, maxY;
+        double density;
+        double gridSize;
+        final Map<String, Integer> counts = new LinkedHashMap<>();
+        /**
+         * Возвращает общее количество фигур в сеансе.
+         * @return Количество фигур.
+         */
+        int totalFigures() {
+            return counts.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    /**
+     * Результат воспроизведения одного сеанса.
+     */
+    static class Result {
+        final Session session;
+        final long[] latencies;
+        final long allocatedBytes;
+
+        Result(Session session, long[] latencies, long allocatedBytes) {
+            this.session = session;
+            this.latencies = latencies;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private final double speed;
+    private final int concurrency;
+    private final int warmup;
+    private final int iterations;
+    private final String rendererType;
+    private final boolean fillFigures;
+    /**
+     * Конструктор класса Replay.
+     * @param speed Ускорение воспроизведения относительно записанного темпа (0 - без пауз между сеансами).
+     * @param concurrency Количество потоков, воспроизводящих сеансы одновременно.
+     * @param warmup Количество прогревочных повторов каждого сеанса, не входящих в результаты.
+     * @param iterations Количество повторов каждого сеанса.
+     * @param rendererType Тип Renderer: "java2d" или "counting".
+     * @param fillFigures Флаг, указывающий, нужно ли заполнять фигуры цветом.
+     */
+    public Replay(double speed, int concurrency, int warmup, int iterations, String rendererType, boolean fillFigures) {
+        this.speed = speed;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.rendererType = rendererType;
+        this.fillFigures = fillFigures;
+    }
+    /**
+     * Разбирает журнал и возвращает список завершенных сеансов генерации.
+     * Сеансы, закончившиеся ошибкой (без строки "Фигуры сгенерированы."), пропускаются.
+     * @param lines Строки журнала.
+     * @return Список сеансов.
+     */
+    static List<Session> parse(List<String> lines) {
+        List<Session> sessions = new ArrayList<>();
+        Session current = null;
+        for (String line : lines) {
+            int separator = line.indexOf(" - ");
+            if (separator < 0) {
+                continue;
+            }
+            String message = line.substring(separator + 3).trim();
+            if (message.equals(START_MARKER)) {
+                current = new Session();
+                current.time = parseTime(line);
+                continue;
+            }
+            if (current == null) {
+                continue;
+            }
+            if (message.equals(END_MARKER)) {
+                sessions.add(current);
+                current = null;
+                continue;
+            }
+            int colon = message.lastIndexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String key = message.substring(0, colon).trim();
+            String value = message.substring(colon + 1).trim();
+            try {
+                switch (key) {
+                    case "Min X" -> current.minX = Double.parseDouble(value);
+                    case "Max X" -> current.maxX = Double.parseDouble(value);
+                    case "Min Y" -> current.minY = Double.parseDouble(value);
+                    case "Max Y" -> current.maxY = Double.parseDouble(value);
+                    case "Кучность" -> current.density = Double.parseDouble(value);
+                    case "Масштаб" -> current.gridSize = Double.parseDouble(value);
+                    default -> {
+                        if (key.startsWith(COUNT_PREFIX)) {
+                            current.counts.put(key.substring(COUNT_PREFIX.length()), Integer.parseInt(value));
+                        }
+                    }
+                }
+            } catch (NumberFormatException ex) {
+                logger.warn("Пропущена строка журнала: {}", line);
+            }
+        }
+        return sessions;
+    }
+
+    private static LocalTime parseTime(String line) {
+        int space = line.indexOf(' ');
+        if (space < 0) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(line.substring(0, space));
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+    /**
+     * Создает генератор с теми же параметрами, которые использовал графический интерфейс.
+     * @param session Сеанс генерации.
+     * @return Генератор фигур.
+     */
+    Generator createGenerator(Session session) {
+        List<Figure> figureTypes = Figure.prototypes();
+        List<Figure> activeFigures = new ArrayList<>();
+        List<Integer> numFiguresList = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : session.counts.entrySet()) {
+            int index = Arrays.asList(Figure.NAMES).indexOf(entry.getKey());
+            if (index < 0) {
+                logger.warn("Неизвестный тип фигуры в журнале: {}", entry.getKey());
+                continue;
+            }
+            activeFigures.add(figureTypes.get(index));
+            numFiguresList.add(entry.getValue());
+        }
+        int[] numFigures = numFiguresList.stream().mapToInt(Integer::intValue).toArray();
+        double correctedMinY = CANVAS_SIZE - session.maxY;
+        double correctedMaxY = CANVAS_SIZE - session.minY;
+        return new Generator(session.minX, session.maxX, correctedMinY, correctedMaxY, numFigures,
+                session.density, session.gridSize, activeFigures, fillFigures);
+    }
+
+    private Renderer createRenderer() {
+        if (rendererType.equals("counting")) {
+            return new CountingRenderer();
+        }
+        return new Java2DRenderer((int) CANVAS_SIZE, (int) CANVAS_SIZE);
+    }
+    /**
+     * Воспроизводит один сеанс заданное число раз в текущем потоке.
+     * Прогревочные повторы выполняются первыми и не учитываются ни во времени, ни в объеме выделенной памяти.
+     * @param session Сеанс генерации.
+     * @return Время каждого повтора в наносекундах и средний объем памяти, выделенной за один повтор.
+     */
+    Result run(Session session) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] latencies = new long[iterations];
+        Renderer renderer = createRenderer();
+        for (int i = 0; i < warmup; i++) {
+            renderer.clearRect(0, 0, CANVAS_SIZE, CANVAS_SIZE);
+            createGenerator(session).draw(renderer);
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            Generator generator = createGenerator(session);
+            renderer.clearRect(0, 0, CANVAS_SIZE, CANVAS_SIZE);
+            long start = System.nanoTime();
+            generator.draw(renderer);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        if (renderer instanceof Java2DRenderer java2d) {
+            java2d.dispose();
+        }
+        return new Result(session, latencies, allocated / iterations);
+    }
+    /**
+     * Воспроизводит все сеансы с учетом записанных интервалов между ними.
+     * @param sessions Список сеансов.
+     * @return Результаты в порядке сеансов.
+     * @throws Exception Если воспроизведение было прервано или завершилось ошибкой.
+     */
+    public List<Result> replay(List<Session> sessions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Result>> futures = new ArrayList<>();
+        try {
+            LocalTime previous = null;
+            for (Session session : sessions) {
+                if (speed > 0 && previous != null && session.time != null) {
+                    long gapMillis = Duration.between(previous, session.time).toMillis();
+                    if (gapMillis > 0) {
+                        Thread.sleep((long) (gapMillis / speed));
+                    }
+                }
+                if (session.time != null) {
+                    previous = session.time;
+                }
+                futures.add(executor.submit(() -> run(session)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    /**
+     * Возвращает перцентиль по методу ближайшего ранга.
+     * @param sorted Отсортированный массив значений.
+     * @param p Перцентиль (0-100).
+     * @return Значение перцентиля.
+     */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+    /**
+     * Выводит отчет о воспроизведении.
+     * @param results Результаты воспроизведения.
+     */
+    static void report(List<Result> results) {
+        System.out.println(String.format(Locale.ROOT, "%-4s %-12s %8s %10s %10s %10s %10s %12s",
+                "#", "время", "фигур", "p50 мс", "p90 мс", "p99 мс", "max мс", "память КБ"));
+        List<Long> all = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            long[] sorted = result.latencies.clone();
+            Arrays.sort(sorted);
+            for (long latency : sorted) {
+                all.add(latency);
+            }
+            System.out.println(String.format(Locale.ROOT, "%-4d %-12s %8d %10.3f %10.3f %10.3f %10.3f %12d",
+                    i + 1, result.session.time, result.session.totalFigures(),
+                    percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6,
+                    percentile(sorted, 99) / 1e6, sorted[sorted.length - 1] / 1e6,
+                    result.allocatedBytes / 1024));
+        }
+        long[] sortedAll = all.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.println(String.format(Locale.ROOT, "Всего: p50 %.3f мс, p90 %.3f мс, p99 %.3f мс",
+                percentile(sortedAll, 50) / 1e6, percentile(sortedAll, 90) / 1e6, percentile(sortedAll, 99) / 1e6));
+    }
+    /**
+     * Возвращает значение параметра командной строки.
+     * @param args Аргументы командной строки.
+     * @param i Индекс значения.
+     * @return Значение параметра.
+     * @throws IllegalArgumentException Если значение не указано.
+     */
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Не указано значение параметра " + args[i - 1]);
+        }
+        return args[i];
+    }
+    /**
+     * Точка входа инструмента воспроизведения.
+     * @param args Путь к журналу и необязательные параметры.
+     * @throws Exception Если журнал не удалось прочитать или воспроизведение завершилось ошибкой.
+     */
+    public static void main(String[] args) throws Exception {
+        Path logPath = null;
+        double speed = 0;
+        int concurrency = 1;
+        int warmup = 5;
+        int iterations = 10;
+        String rendererType = "java2d";
+        boolean fill = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--speed" -> speed = Double.parseDouble(value(args, ++i));
+                    case "--concurrency" -> concurrency = Integer.parseInt(value(args, ++i));
+                    case "--warmup" -> warmup = Integer.parseInt(value(args, ++i));
+                    case "--iterations" -> iterations = Integer.parseInt(value(args, ++i));
+                    case "--renderer" -> rendererType = value(args, ++i);
+                    case "--fill" -> fill = true;
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Неизвестный параметр " + args[i]);
+                        }
+                        if (logPath != null) {
+                            throw new IllegalArgumentException("Журнал указан дважды: " + logPath + " и " + args[i]);
+                        }
+                        logPath = Paths.get(args[i]);
+                    }
+                }
+            }
+            if (!rendererType.equals("java2d") && !rendererType.equals("counting")) {
+                throw new IllegalArgumentException("Неизвестный тип Renderer: " + rendererType);
+            }
+            if (speed < 0 || concurrency < 1 || iterations < 1 || warmup < 0) {
+                throw new IllegalArgumentException("Параметры --concurrency и --iterations должны быть положительными, "
+                        + "--speed и --warmup - неотрицательными.");
+            }
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException - подкласс IllegalArgumentException.
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return;
+        }
+        if (logPath == null) {
+            logPath = Paths.get("app.log");
+        }
+
+        List<Session> sessions;
+        try {
+            sessions = parse(Files.readAllLines(logPath, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            logger.error("Не удалось прочитать журнал {}: {}", logPath, ex.getMessage());
+            throw ex;
+        }
+        System.out.println("Найдено сеансов: " + sessions.size());
+        if (sessions.isEmpty()) {
+            return;
+        }
+        Replay replay = new Replay(speed, concurrency, warmup, iterations, rendererType, fill);
+        report(replay.replay(sessions));
+    }
+}
@@ -4,10 +4,10 @@
 module com.example.cursach {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.desktop;
 
-    requires org.controlsfx.controls;
-    requires org.kordamp.bootstrapfx.core;
     requires org.apache.logging.log4j;
+    requires jdk.management;
 
     opens com.example.cursach to javafx.fxml;
     exports com.example.cursach;
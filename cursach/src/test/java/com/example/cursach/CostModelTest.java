@@ -0,0 +1,71 @@
+package com.example.cursach;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/**
+ * Проверки уточнения оценок {@link CostModel} по результатам генерации.
+ */
+class CostModelTest {
+    private static final int[] SMALL_COUNTS = {5, 5, 5, 5, 5, 5};
+    private static final int[] LARGE_COUNTS = {5000, 5000, 5000, 5000, 500, 5000};
+
+    private static CostModel newModel() {
+        return new CostModel(Paths.get("target", "cost-model-test.properties"));
+    }
+
+    @Test
+    void frameDelayOnSmallCountsGoesToFixedTerm() {
+        CostModel model = newModel();
+        long frameDelay = 25_000_000;
+
+        for (int i = 0; i < 50; i++) {
+            model.learn(CostModel.FX, SMALL_COUNTS, 1.0, false, null, frameDelay);
+        }
+
+        for (int type = 0; type < SMALL_COUNTS.length; type++) {
+            double k = model.correction(CostModel.FX, type);
+            assertTrue(k > 0.5 && k < 2, "Поправка " + Figure.NAMES[type] + ": " + k);
+        }
+        assertEquals(frameDelay, model.predict(CostModel.FX, SMALL_COUNTS, 1.0, false), frameDelay * 0.05);
+    }
+
+    @Test
+    void separatesFixedAndPerFigureTimeFromTotals() {
+        CostModel model = newModel();
+        double fixed = 20_000_000;
+        double small = model.predict(CostModel.FX, SMALL_COUNTS, 1.0, false);
+        double large = model.predict(CostModel.FX, LARGE_COUNTS, 1.0, false);
+
+        // Фигуры рисуются вдвое медленнее откалиброванного, сеансы разного размера чередуются.
+        for (int i = 0; i < 200; i++) {
+            boolean isSmall = i % 2 == 0;
+            long total = (long) (fixed + 2 * (isSmall ? small : large));
+            model.learn(CostModel.FX, isSmall ? SMALL_COUNTS : LARGE_COUNTS, 1.0, false, null, total);
+        }
+
+        for (int type = 0; type < SMALL_COUNTS.length; type++) {
+            assertEquals(2.0, model.correction(CostModel.FX, type), 0.2);
+        }
+        assertEquals(fixed, model.fixedNanos(CostModel.FX), fixed * 0.1);
+    }
+
+    @Test
+    void perTypeTimesKeepCorrectionsBounded() {
+        CostModel model = newModel();
+        long[] drawNanos = new long[SMALL_COUNTS.length];
+        drawNanos[0] = 1_000_000_000;
+
+        for (int i = 0; i < 50; i++) {
+            model.learn(CostModel.JAVA2D, SMALL_COUNTS, 1.0, true, drawNanos, 1_000_000_000);
+        }
+
+        for (int type = 0; type < SMALL_COUNTS.length; type++) {
+            double k = model.correction(CostModel.JAVA2D, type);
+            assertTrue(k >= 0.05 && k <= 20, "Поправка " + Figure.NAMES[type] + ": " + k);
+        }
+    }
+}
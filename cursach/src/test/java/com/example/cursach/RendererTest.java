@@ -0,0 +1,90 @@
+package com.example.cursach;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/**
+ * Проверки бюджета отрисовки: количество операций рисования, смен состояния и выделенной памяти
+ * при отрисовке фигур через {@link CountingRenderer}, а также воспроизведение записи {@link RecordingRenderer}.
+ */
+class RendererTest {
+    private static final int FIGURES = 1000;
+    /**
+     * Максимальное количество операций рисования на одну фигуру каждого типа (в порядке {@link Figure#NAMES}).
+     * Парабола рисуется 50 отрезками.
+     */
+    private static final int[] MAX_DRAW_CALLS = {1, 1, 1, 1, 50, 1};
+    /**
+     * Максимальное количество смен состояния на одну фигуру: цвет линий, цвет заливки, толщина линий
+     * и восстановление толщины генератором.
+     */
+    private static final int MAX_STATE_CHANGES = 4;
+    /**
+     * Максимальный объем памяти (байт), выделяемой на одну фигуру каждого типа.
+     */
+    private static final long[] MAX_BYTES = {1024, 1024, 1024, 1024, 2048, 1024};
+
+    private static Generator generator(int type, int count, boolean fill) {
+        return new Generator(50, 850, 50, 850, new int[]{count}, 1, 100, List.of(Figure.prototypes().get(type)), fill);
+    }
+
+    @Test
+    void drawCallsAndStateChangesStayWithinBudget() {
+        CountingRenderer renderer = new CountingRenderer();
+        for (int type = 0; type < Figure.NAMES.length; type++) {
+            for (boolean fill : new boolean[]{false, true}) {
+                renderer.reset();
+                generator(type, FIGURES, fill).draw(renderer);
+                String name = Figure.NAMES[type] + (fill ? " (заливка)" : "");
+                assertTrue(renderer.getDrawCalls() <= (long) MAX_DRAW_CALLS[type] * FIGURES,
+                        name + ": операций рисования " + renderer.getDrawCalls());
+                assertTrue(renderer.getStateChanges() <= (long) MAX_STATE_CHANGES * FIGURES,
+                        name + ": смен состояния " + renderer.getStateChanges());
+            }
+        }
+    }
+
+    @Test
+    void allocationStaysWithinBudget() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int type = 0; type < Figure.NAMES.length; type++) {
+            // Первый запуск прогревает рефлексию и JIT, его выделения не учитываются.
+            generator(type, FIGURES, true).draw(new CountingRenderer());
+            Generator generator = generator(type, FIGURES, true);
+            CountingRenderer renderer = new CountingRenderer();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            generator.draw(renderer);
+            long bytesPerFigure = (threads.getCurrentThreadAllocatedBytes() - before) / FIGURES;
+            assertTrue(bytesPerFigure <= MAX_BYTES[type],
+                    Figure.NAMES[type] + ": выделено " + bytesPerFigure + " байт на фигуру");
+        }
+    }
+
+    @Test
+    void replayedRecordingReproducesCounts() {
+        for (int type = 0; type < Figure.NAMES.length; type++) {
+            RecordingRenderer recording = new RecordingRenderer();
+            generator(type, 100, type % 2 == 0).draw(recording);
+
+            CountingRenderer counting = new CountingRenderer();
+            recording.replay(counting);
+            long stateCommands = recording.getCommands().stream().filter(c -> c.op.startsWith("set")).count();
+            assertEquals(stateCommands, counting.getStateChanges());
+            assertEquals(recording.getCommands().size() - stateCommands, counting.getDrawCalls());
+            assertEquals(100L * MAX_DRAW_CALLS[type], counting.getDrawCalls());
+
+            RecordingRenderer copy = new RecordingRenderer();
+            recording.replay(copy);
+            assertEquals(commandsAsText(recording), commandsAsText(copy));
+        }
+    }
+
+    private static List<String> commandsAsText(RecordingRenderer renderer) {
+        return renderer.getCommands().stream().map(Object::toString).collect(Collectors.toList());
+    }
+}
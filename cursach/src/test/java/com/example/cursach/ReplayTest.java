@@ -0,0 +1,85 @@
+package com.example.cursach;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+/**
+ * Проверки разбора журнала app.log инструментом воспроизведения {@link Replay}.
+ */
+class ReplayTest {
+    private static final String GUI_PREFIX = " [JavaFX Application Thread] INFO  com.example.cursach.GUI - ";
+    private static final String GENERATOR_PREFIX = " [JavaFX Application Thread] INFO  com.example.cursach.Generator - ";
+
+    private static List<String> session(String time, String... counts) {
+        List<String> lines = new ArrayList<>(List.of(
+                time + GUI_PREFIX + "Кнопка генерации нажата",
+                time + GUI_PREFIX + "Входные параметры:",
+                time + GUI_PREFIX + "Min X: 50.0",
+                time + GUI_PREFIX + "Max X: 850.0",
+                time + GUI_PREFIX + "Min Y: 100.0",
+                time + GUI_PREFIX + "Max Y: 800.0",
+                time + GUI_PREFIX + "Кучность: 0.5",
+                time + GUI_PREFIX + "Масштаб: 120.0",
+                time + GUI_PREFIX + "Выбранные фигуры:"));
+        for (String count : counts) {
+            lines.add(time + GUI_PREFIX + "Количество " + count + " ");
+        }
+        return lines;
+    }
+
+    private static List<String> completed(String time, String... counts) {
+        List<String> lines = session(time, counts);
+        lines.add(time + GENERATOR_PREFIX + "Начало генерации фигур.");
+        lines.add(time + GENERATOR_PREFIX + "Конец генерации фигур.");
+        lines.add(time + GUI_PREFIX + "Фигуры сгенерированы.");
+        return lines;
+    }
+
+    @Test
+    void parsesCompletedSessionWithAllParameters() {
+        List<Replay.Session> sessions = Replay.parse(completed("22:39:44.450", "Линия: 5", "Парабола: 7"));
+
+        assertEquals(1, sessions.size());
+        Replay.Session session = sessions.get(0);
+        assertEquals(LocalTime.of(22, 39, 44, 450_000_000), session.time);
+        assertEquals(50.0, session.minX);
+        assertEquals(850.0, session.maxX);
+        assertEquals(100.0, session.minY);
+        assertEquals(800.0, session.maxY);
+        assertEquals(0.5, session.density);
+        assertEquals(120.0, session.gridSize);
+        assertEquals(Map.of("Линия", 5, "Парабола", 7), session.counts);
+        assertEquals(12, session.totalFigures());
+    }
+
+    @Test
+    void skipsSessionsWithoutEndMarker() {
+        List<String> lines = new ArrayList<>();
+        lines.addAll(session("10:00:00.000", "Линия: 3"));
+        lines.add("10:00:00.001 [JavaFX Application Thread] ERROR com.example.cursach.GUI - Ошибка генерации фигур");
+        lines.add("10:00:01.000" + GUI_PREFIX + "Параметр изменен: Количество Линия: 3 -> 4");
+        lines.addAll(completed("10:00:02.000", "Линия: 4"));
+        lines.addAll(session("10:00:03.000", "Окружность: 9"));
+
+        List<Replay.Session> sessions = Replay.parse(lines);
+
+        assertEquals(1, sessions.size());
+        assertEquals(LocalTime.of(10, 0, 2), sessions.get(0).time);
+        assertEquals(Map.of("Линия", 4), sessions.get(0).counts);
+    }
+
+    @Test
+    void unknownFigureNamesAreParsedButNotDrawn() {
+        List<Replay.Session> sessions = Replay.parse(completed("10:00:00.000", "Окружность: 3", "Звезда: 2"));
+        assertEquals(Map.of("Окружность", 3, "Звезда", 2), sessions.get(0).counts);
+
+        CountingRenderer renderer = new CountingRenderer();
+        new Replay(0, 1, 0, 1, "counting", false).createGenerator(sessions.get(0)).draw(renderer);
+        assertEquals(3, renderer.getDrawCalls());
+    }
+}